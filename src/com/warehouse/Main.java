@@ -1,11 +1,13 @@
 package com.warehouse;
 
-import com.warehouse.util.GraphExport;
+import com.warehouse.graph.EdgeUpdate;
+import com.warehouse.graph.Route;
 import com.warehouse.model.Product;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.io.IOException;
+import java.util.List;
 
 public class Main {
 
@@ -66,7 +68,24 @@ public class Main {
         svc.updateConnection(10, 20, 222.0);
 
         /* ──────────── CALCULAR EL CAMINO MAS CORTO ──────────── */
-        svc.getGraph().printShortestPath(12, 2);
+        svc.printRoute(svc.findRoute(12, 2));
+
+        /* ──────────── CONGESTIÓN: PESOS EN LOTE ──────────── */
+        svc.trackRoutesFrom(1);                                     // RECEPCION
+        svc.trackRoutesTo(2);                                       // DESPACHO
+        svc.updateConnections(List.of(
+                new EdgeUpdate(12, 13, 9.5),                        // A-3 → A-4 congestionado
+                new EdgeUpdate(22, 23, 3.0)));                      // B-3 → B-4 despejado
+        svc.printRoute(svc.findRoute(12, 2));
+
+        /* ──────────── RUTAS ALTERNATIVAS PARA REPARTIR PREPARADORES ──────────── */
+        for (Route r : svc.findAlternativeRoutes(12, 2, 3)) svc.printRoute(r);
+
+        /* ──────────── RUTAS Y PRODUCTOS CACHEADOS ──────────── */
+        for (int i = 0; i < 3; i++) svc.findRoute(12, 2);          // ya cacheada: 3 aciertos
+        svc.findProductInNode(12, "SKU-200");
+        System.out.println("SKU-200 en nodos " + svc.findLocations("SKU-200"));
+        System.out.println("Caché de rutas: " + svc.getRouteCacheStats());
 
         /* ──────────── ANADIR O QUITAR STOCK ──────────── */
         // Sumar 15 unidades del taladro en el estante A-1
@@ -79,9 +98,15 @@ public class Main {
         else
             System.out.println("No hay suficiente stock o SKU inexistente");
 
+        /* ──────────── BORRAR PRODUCTOS ──────────── */
+        svc.removeStock(10, "SKU-101", 2);                          // Matamoscas queda en 0
+        System.out.println("Productos vacíos retirados: " + svc.clearEmptyProducts());
+        svc.removeProduct(12, "SKU-201");
+        System.out.println("Nodos compactados: " + svc.compactNow());
+
 
         /* ──────────── EXPORTAR A DOT ──────────── */
-        String dot = GraphExport.toDot(svc.getGraph());
+        String dot = svc.exportDot();
         Files.writeString(Path.of("almacen.dot"), dot);
         System.out.println("→ Generado almacen.dot con topología grande");
     }
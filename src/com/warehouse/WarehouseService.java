@@ -1,57 +1,333 @@
 package com.warehouse;
 
+import com.warehouse.cache.LruCache;
+import com.warehouse.cache.LruCache.CacheStats;
+import com.warehouse.graph.EdgeUpdate;
+import com.warehouse.graph.Route;
 import com.warehouse.graph.WarehouseGraph;
 import com.warehouse.graph.WarehouseNode;
 import com.warehouse.model.Product;
+import com.warehouse.util.GraphExport;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
-/** Fachada: coordina grafo + productos locales. */
+/**
+ * Fachada: coordina grafo + productos locales.
+ *  – Consultas calientes (producto en nodo, ubicaciones de un SKU, rutas) pasan por cachés LRU acotadas.
+ *  – Cada mutación invalida solo las entradas a las que afecta.
+ *  – Lecturas concurrentes con candado de lectura; mutaciones con candado de escritura.
+ *  – Los borrados de productos son lápidas; la compactación de los árboles B se hace
+ *    nodo a nodo en segundo plano (startCompaction) o a demanda (compactNow).
+ */
 public class WarehouseService {
 
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final double COMPACTION_RATIO = 0.25;   // lápidas / productos vivos
+
     private WarehouseGraph graph = new WarehouseGraph();
 
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record ProductKey(int nodeId, String sku) {}
+    private record RouteKey(int from, int to) {}
+    private record AlternativesKey(int from, int to, int k) {}
+
+    private final LruCache<ProductKey, Product> productCache;
+    private final LruCache<String, List<Integer>> locationCache;
+    private final LruCache<RouteKey, Route> routeCache;
+    private final LruCache<AlternativesKey, List<Route>> alternativesCache;
+
+    private ScheduledExecutorService compactor;
+
+    public WarehouseService() { this(DEFAULT_CACHE_SIZE); }
+
+    /** Las cuatro cachés con la misma capacidad. */
+    public WarehouseService(int cacheSize) {
+        this(cacheSize, cacheSize, cacheSize, cacheSize);
+    }
+
+    /** La caché de rutas alternativas (findAlternativeRoutes) toma la capacidad de la de rutas. */
+    public WarehouseService(int productCacheSize, int locationCacheSize, int routeCacheSize) {
+        this(productCacheSize, locationCacheSize, routeCacheSize, routeCacheSize);
+    }
+
+    public WarehouseService(int productCacheSize, int locationCacheSize, int routeCacheSize,
+                            int alternativesCacheSize) {
+        productCache      = new LruCache<>(productCacheSize);
+        locationCache     = new LruCache<>(locationCacheSize);
+        routeCache        = new LruCache<>(routeCacheSize);
+        alternativesCache = new LruCache<>(alternativesCacheSize);
+    }
+
     /* ---------- UBICACIONES ---------- */
-    public void addLocation(int id, String label) { graph.addNode(id, label); }
-    public void connect(int from, int to, double w){ graph.addEdge(from, to, w); }
-    public void removeConnection(int from, int to){ graph.removeEdge(from, to); }
-    public void updateConnection(int from, int to, double w){ graph.updateEdge(from, to, w); }
+    public void addLocation(int id, String label) {
+        write(() -> graph.addNode(id, label));   // un nodo sin aristas no cambia ninguna ruta
+    }
+    public void connect(int from, int to, double w){
+        write(() -> {
+            graph.addEdge(from, to, w);
+            clearRoutes();                       // una arista nueva puede acortar cualquier ruta
+        });
+    }
+    public void removeConnection(int from, int to){
+        write(() -> {
+            graph.removeEdge(from, to);
+            invalidateRoutesUsing(from, to);     // solo se rompen las rutas que la usaban
+        });
+    }
+    public void updateConnection(int from, int to, double w){
+        updateConnections(List.of(new EdgeUpdate(from, to, w)));
+    }
+
+    /** Aplica un lote de pesos (p. ej. el vector de congestión) en una sola operación. */
+    public void updateConnections(Collection<EdgeUpdate> updates) {
+        write(() -> {
+            boolean onlyWorse = true;
+            for (EdgeUpdate u : updates) {
+                WarehouseNode a = graph.getNode(u.from()), b = graph.getNode(u.to());
+                Double old = (a == null || b == null) ? null : a.getEdges().get(b);
+                if (old == null || u.weight() < old) onlyWorse = false;
+            }
+            graph.updateEdges(updates);
+            if (onlyWorse) updates.forEach(u -> invalidateRoutesUsing(u.from(), u.to())); // más caras: solo rutas que las usan
+            else clearRoutes();                                                            // alguna más barata: cualquiera podría cambiar
+        });
+    }
+
+    /** Mantiene rutas precalculadas desde / hacia un nodo caliente (RECEPCION, DESPACHO). */
+    public void trackRoutesFrom(int id) { write(() -> { graph.trackSource(id); }); }
+    public void trackRoutesTo(int id)   { write(() -> { graph.trackTarget(id); }); }
 
     /* ---------- PRODUCTOS EN UBICACIONES ---------- */
     public void addProduct(int nodeId, Product p) {
-        graph.getNode(nodeId).putProduct(p);
+        write(() -> {
+            graph.getNode(nodeId).putProduct(p);
+            invalidateProduct(nodeId, p.getSku());
+        });
+    }
+    /** Borra el producto del nodo (lápida); la compactación llega después. */
+    public boolean removeProduct(int nodeId, String sku) {
+        return write(() -> {
+            WarehouseNode n = graph.getNode(nodeId);
+            if (n == null || !n.deleteProduct(sku)) return false;
+            invalidateProduct(nodeId, sku);
+            return true;
+        });
+    }
+
+    /** Borra de todos los nodos los productos con cantidad 0; devuelve cuántos. */
+    public int clearEmptyProducts() {
+        return write(() -> {
+            int count = 0;
+            for (WarehouseNode n : graph.getNodes()) {
+                for (String sku : n.deleteEmptyProducts()) {
+                    invalidateProduct(n.getId(), sku);
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    private void invalidateProduct(int nodeId, String sku) {
+        productCache.invalidate(new ProductKey(nodeId, sku));
+        locationCache.invalidate(sku);
     }
+
     public Product findProductInNode(int nodeId, String sku) {
-        WarehouseNode n = graph.getNode(nodeId);
-        return n == null ? null : n.getProduct(sku);
+        return read(() -> {
+            ProductKey key = new ProductKey(nodeId, sku);
+            Product p = productCache.get(key);
+            if (p != null) return p;
+            WarehouseNode n = graph.getNode(nodeId);
+            p = n == null ? null : n.getProduct(sku);
+            productCache.put(key, p);
+            return p;
+        });
+    }
+
+    /** IDs de todos los nodos que guardan el SKU. */
+    public List<Integer> findLocations(String sku) {
+        return read(() -> {
+            List<Integer> ids = locationCache.get(sku);
+            if (ids != null) return ids;
+            List<Integer> found = new ArrayList<>();
+            for (WarehouseNode n : graph.getNodes()) {
+                if (n.getProduct(sku) != null) found.add(n.getId());
+            }
+            ids = List.copyOf(found);
+            locationCache.put(sku, ids);
+            return ids;
+        });
     }
 
+    // El stock se modifica sobre el mismo objeto Product cacheado: no hace falta invalidar.
     public boolean addStock(int nodeId, String sku, int qty) {
-        WarehouseNode n = graph.getNode(nodeId);
-        return n != null && n.addStock(sku, qty);
+        return write(() -> {
+            WarehouseNode n = graph.getNode(nodeId);
+            return n != null && n.addStock(sku, qty);
+        });
     }
     public boolean removeStock(int nodeId, String sku, int qty) {
-        WarehouseNode n = graph.getNode(nodeId);
-        return n != null && n.removeStock(sku, qty);
+        return write(() -> {
+            WarehouseNode n = graph.getNode(nodeId);
+            return n != null && n.removeStock(sku, qty);
+        });
     }
 
     public Product bfsFind(String sku, int startId) {
-        for (WarehouseNode n : graph.breadthFirstSearch(startId)) {
-            Product p = n.getProduct(sku);
-            if (p != null) return p;
-        }
-        return null;
+        return read(() -> {
+            for (WarehouseNode n : graph.breadthFirstSearch(startId)) {
+                Product p = n.getProduct(sku);
+                if (p != null) return p;
+            }
+            return null;
+        });
     }
     public Product dfsFind(String sku, int startId) {
-        for (WarehouseNode n : graph.depthFirstSearch(startId)) {
-            Product p = n.getProduct(sku);
-            if (p != null) return p;
+        return read(() -> {
+            for (WarehouseNode n : graph.depthFirstSearch(startId)) {
+                Product p = n.getProduct(sku);
+                if (p != null) return p;
+            }
+            return null;
+        });
+    }
+
+    /* ---------- RUTAS ---------- */
+    /** Ruta más corta (cacheada); null si no existe camino. */
+    public Route findRoute(int from, int to) {
+        return read(() -> {
+            RouteKey key = new RouteKey(from, to);
+            Route r = routeCache.get(key);
+            if (r != null) return r;
+            r = graph.shortestPath(from, to);
+            routeCache.put(key, r);
+            return r;
+        });
+    }
+
+    /**
+     * Hasta k rutas alternativas sin ciclos (cacheadas), ordenadas por coste,
+     * para repartir preparadores entre rutas casi óptimas.
+     */
+    public List<Route> findAlternativeRoutes(int from, int to, int k) {
+        return read(() -> {
+            AlternativesKey key = new AlternativesKey(from, to, k);
+            List<Route> routes = alternativesCache.get(key);
+            if (routes != null) return routes;
+            routes = List.copyOf(graph.kShortestPaths(from, to, k));
+            alternativesCache.put(key, routes);
+            return routes;
+        });
+    }
+
+    // Si una arista sube de peso y ninguna de las rutas cacheadas la usa, esas rutas siguen siendo las mejores
+    private void invalidateRoutesUsing(int from, int to) {
+        routeCache.invalidateIf((k, r) -> r.usesEdge(from, to));
+        alternativesCache.invalidateIf((k, rs) -> rs.stream().anyMatch(r -> r.usesEdge(from, to)));
+    }
+
+    private void clearRoutes() {
+        routeCache.clear();
+        alternativesCache.clear();
+    }
+
+    /* ---------- COMPACTACIÓN ---------- */
+    /**
+     * Compacta los nodos con demasiadas lápidas. Cada nodo se compacta por separado
+     * bajo el candado de escritura, así las consultas se intercalan entre un nodo y otro.
+     * Devuelve cuántos nodos se compactaron.
+     */
+    public int compactNow() {
+        List<WarehouseNode> snapshot = read(() -> new ArrayList<>(graph.getNodes()));
+        int compacted = 0;
+        for (WarehouseNode n : snapshot) {
+            boolean done = write(() -> {
+                if (!n.needsCompaction(COMPACTION_RATIO)) return false;
+                n.compact();
+                return true;
+            });
+            if (done) compacted++;
         }
-        return null;
+        return compacted;
+    }
+
+    /** Lanza la compactación periódica en un hilo demonio. */
+    public synchronized void startCompaction(long periodMillis) {
+        if (compactor != null) return;
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "btree-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(this::compactNow, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopCompaction() {
+        if (compactor == null) return;
+        compactor.shutdown();
+        compactor = null;
+    }
+
+    /* ---------- ESTADÍSTICAS DE CACHÉ ---------- */
+    public CacheStats getProductCacheStats()  { return productCache.stats(); }
+    public CacheStats getLocationCacheStats() { return locationCache.stats(); }
+    public CacheStats getRouteCacheStats()    { return routeCache.stats(); }
+    public CacheStats getAlternativesCacheStats() { return alternativesCache.stats(); }
+
+    public void clearCaches() {
+        productCache.clear();
+        locationCache.clear();
+        clearRoutes();
+    }
+
+    /* ---------- SALIDA ---------- */
+    /** Imprime la ruta con las etiquetas de los nodos (bajo candado de lectura). */
+    public void printRoute(Route route) {
+        read(() -> {
+            if (route == null) System.out.println("No hay camino");
+            else graph.printRoute(route);
+            return null;
+        });
+    }
+
+    /** Exporta el grafo a DOT (bajo candado de lectura: no ve árboles B a medio compactar). */
+    public String exportDot() {
+        return read(() -> GraphExport.toDot(graph));
     }
 
-    /** Permite acceder al grafo para exportarlo o recorrerlo. */
+    /**
+     * Acceso directo al grafo, SIN candado. No usar mientras haya mutaciones concurrentes
+     * ni con la compactación en segundo plano activa (startCompaction): los árboles B se
+     * reconstruyen en otro hilo. Para rutas y exportación usar findRoute, printRoute y exportDot.
+     */
     public WarehouseGraph getGraph() {
         return graph;
     }
+
+    /* ---------- CANDADOS ---------- */
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try { return action.get(); }
+        finally { lock.readLock().unlock(); }
+    }
+    private <T> T write(Supplier<T> action) {
+        lock.writeLock().lock();
+        try { return action.get(); }
+        finally { lock.writeLock().unlock(); }
+    }
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try { action.run(); }
+        finally { lock.writeLock().unlock(); }
+    }
 }
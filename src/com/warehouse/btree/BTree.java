@@ -7,63 +7,83 @@ import java.util.List;
 /**
  * Árbol B genérico, orden ≥ 3.
  *  – Las claves y valores residen en **todos** los nodos.
- *  – Operaciones implementadas: search, insert (sin delete).
+ *  – Operaciones implementadas: search, insert, delete (con rebalanceo inmediato).
+ *  – remove(): borrado perezoso. Deja una lápida (valor null) y no toca la estructura;
+ *    compact() reconstruye el árbol solo con las claves vivas, en lote.
  */
 public class BTree<K extends Comparable<K>, V> {
 
     private int order;
+    private int t;             // grado mínimo: ceil(order/2); todo nodo salvo la raíz guarda ≥ t-1 claves
     private Node<K, V> root;
+    private int size;          // claves vivas
+    private int tombstones;    // claves borradas con remove() pendientes de compactar
 
     public BTree(int order) {
         if (order < 3) throw new IllegalArgumentException("Orden debe ser ≥ 3");
         this.order = order;
+        this.t     = (order + 1) / 2;
         this.root  = new Node<>(true);
     }
 
     /* ---------- SEARCH ---------- */
     public V search(K key) {
-        return search(root, key);
+        Node<K,V> n = findNode(key);
+        return n == null ? null : n.values.get(Collections.binarySearch(n.keys, key));
     }
-    private V search(Node<K,V> n, K key) {
-        int idx = Collections.binarySearch(n.keys, key);
-        if (idx >= 0) return n.values.get(idx);
-        if (n.leaf) return null;
-        int child = -idx - 1;
-        return search(n.children.get(child), key);
+
+    /** Nodo que contiene la clave (viva o lápida), o null si no está. */
+    private Node<K,V> findNode(K key) {
+        Node<K,V> n = root;
+        while (true) {
+            int idx = Collections.binarySearch(n.keys, key);
+            if (idx >= 0) return n;
+            if (n.leaf) return null;
+            n = n.children.get(-idx - 1);
+        }
     }
 
     /* ---------- INSERT ---------- */
     public void insert(K key, V val) {
-        Node<K,V> actualRoot = root;
-//    Raíz llena?
-        if (actualRoot.keys.size() == order-1) {  // valida si esta lleno
+        if (val == null) throw new IllegalArgumentException("Valor null reservado para lápidas");
+
+        // Clave ya presente (en cualquier nivel): solo se reemplaza el valor
+        Node<K,V> existing = findNode(key);
+        if (existing != null) {
+            int pos = Collections.binarySearch(existing.keys, key);
+            if (existing.values.get(pos) == null) { tombstones--; size++; } // revive una lápida
+            existing.values.set(pos, val);
+            return;
+        }
+        size++;
+
+        insertInto(root, key, val);
+//    Raíz desbordada?
+        if (root.keys.size() > order-1) {
             Node<K,V> newRoot = new Node<>(false); // nueva raiz
-            newRoot.children.add(actualRoot); // este nuevo nodo tendra como primer hijo al antiguo
+            newRoot.children.add(root); // este nuevo nodo tendra como primer hijo al antiguo
             splitChild(newRoot,0);
             root = newRoot;
-            insertNonFull(newRoot, key, val);
-        } else insertNonFull(actualRoot, key, val);
+        }
     }
 
-    private void insertNonFull(Node<K,V> n, K key, V val) {
-        int i = n.keys.size()-1;
+    /*
+     * Inserta y parte al volver los hijos que quedaron con `order` claves.
+     * Partir antes de bajar (nodos con order-1 claves) deja, con orden impar,
+     * una mitad con t-2 claves: por debajo del mínimo.
+     */
+    private void insertInto(Node<K,V> n, K key, V val) {
+        int pos = -Collections.binarySearch(n.keys, key) - 1; // la clave no existe (se comprobó antes)
         if (n.leaf) {                // insertar en hoja
-            int pos = Collections.binarySearch(n.keys, key);
-            if (pos >= 0) { n.values.set(pos, val); return; }
-            pos = -pos-1;
             n.keys.add(pos,key);
             n.values.add(pos,val);
-        } else {
-            while (i>=0 && key.compareTo(n.keys.get(i))<0) i--;
-            i++;
-            if (n.children.get(i).keys.size()==order-1) { // Verificamos si el hijo esta lleno
-                splitChild(n,i);
-                if (key.compareTo(n.keys.get(i))>0) i++;
-            }
-            insertNonFull(n.children.get(i), key, val); // volvemos a hacer insert en el hijo correspondiente
+            return;
         }
+        insertInto(n.children.get(pos), key, val); // volvemos a hacer insert en el hijo correspondiente
+        splitIfOverfull(n, pos);
     }
 
+    // Parte un hijo con `order` claves: t-1 a la izquierda, la mediana sube, el resto a la derecha
     private void splitChild(Node<K,V> parent, int idx) {
         Node<K,V> full = parent.children.get(idx);
         Node<K,V> right = new Node<>(full.leaf);
@@ -94,12 +114,19 @@ public class BTree<K extends Comparable<K>, V> {
     /* ---------- DELETE ---------- */
     public boolean delete(K key) {
         if (root == null) return false;
-        boolean deleted = delete(root, key);
+        Node<K,V> holder = findNode(key);
+        if (holder == null) return false;
+        // Una lápida se elimina físicamente, pero la clave ya no existía: devuelve false
+        boolean live = holder.values.get(Collections.binarySearch(holder.keys, key)) != null;
+        if (live) size--;
+        else tombstones--;
+
+        delete(root, key);
         // Si la raíz queda vacía
         if (root.keys.isEmpty() && !root.leaf) {
             root = root.children.get(0);
         }
-        return deleted;
+        return live;
     }
 
     private boolean delete(Node<K,V> node, K key) {
@@ -122,8 +149,8 @@ public class BTree<K extends Comparable<K>, V> {
         int childIdx = -idx - 1;
         Node<K,V> child = node.children.get(childIdx);
 
-        // Verificar si el hijo necesita refuerzo antes de eliminar
-        if (child.keys.size() < order / 2) {
+        // Verificar si el hijo necesita refuerzo antes de eliminar (tiene el mínimo t-1)
+        if (child.keys.size() < t) {
             fillChild(node, childIdx);
             // Recalcular el índice después de posible fusión
             idx = Collections.binarySearch(node.keys, key);
@@ -131,16 +158,18 @@ public class BTree<K extends Comparable<K>, V> {
             child = node.children.get(childIdx);
         }
 
-        return delete(child, key);
+        boolean deleted = delete(child, key);
+        splitIfOverfull(node, childIdx);
+        return deleted;
     }
 
     private boolean deleteInternalNode(Node<K,V> node, int idx) {
         // Intentar con el predecesor (hijo izquierdo)
         Node<K,V> leftChild = node.children.get(idx);
-        if (leftChild.keys.size() >= order / 2) {
+        if (leftChild.keys.size() >= t) {
             Node<K,V> predecessor = getRightmostNode(leftChild);
-            K predKey = predecessor.keys.remove(predecessor.keys.size() - 1);
-            V predVal = predecessor.values.remove(predecessor.values.size() - 1);
+            K predKey = predecessor.keys.get(predecessor.keys.size() - 1);
+            V predVal = predecessor.values.get(predecessor.values.size() - 1);
             node.keys.set(idx, predKey);
             node.values.set(idx, predVal);
             return delete(leftChild, predKey);
@@ -148,18 +177,29 @@ public class BTree<K extends Comparable<K>, V> {
 
         // Intentar con el sucesor (hijo derecho)
         Node<K,V> rightChild = node.children.get(idx + 1);
-        if (rightChild.keys.size() >= order / 2) {
+        if (rightChild.keys.size() >= t) {
             Node<K,V> successor = getLeftmostNode(rightChild);
-            K succKey = successor.keys.remove(0);
-            V succVal = successor.values.remove(0);
+            K succKey = successor.keys.get(0);
+            V succVal = successor.values.get(0);
             node.keys.set(idx, succKey);
             node.values.set(idx, succVal);
             return delete(rightChild, succKey);
         }
 
-        // Fusión si ambos hijos tienen mínimo de claves
+        // Fusión si ambos hijos tienen mínimo de claves (la clave baja al hijo izquierdo)
+        K key = node.keys.get(idx);
         mergeNodes(node, idx, leftChild, rightChild);
-        return delete(leftChild, node.keys.remove(idx));
+        boolean deleted = delete(leftChild, key);
+        splitIfOverfull(node, idx);
+        return deleted;
+    }
+
+    /*
+     * Con orden impar, fusionar dos nodos mínimos da 2(t-1)+1 = order claves, una más del máximo.
+     * Si el borrado bajo ese hijo no le quitó ninguna, se vuelve a partir al subir.
+     */
+    private void splitIfOverfull(Node<K,V> parent, int childIdx) {
+        if (parent.children.get(childIdx).keys.size() > order - 1) splitChild(parent, childIdx);
     }
 
     // Métodos auxiliares esenciales
@@ -167,7 +207,7 @@ public class BTree<K extends Comparable<K>, V> {
         Node<K,V> child = parent.children.get(childIdx);
 
         // Intentar tomar prestado del hermano izquierdo
-        if (childIdx > 0 && parent.children.get(childIdx - 1).keys.size() >= order / 2) {
+        if (childIdx > 0 && parent.children.get(childIdx - 1).keys.size() >= t) {
             Node<K,V> leftSibling = parent.children.get(childIdx - 1);
             child.keys.add(0, parent.keys.get(childIdx - 1));
             child.values.add(0, parent.values.get(childIdx - 1));
@@ -179,7 +219,7 @@ public class BTree<K extends Comparable<K>, V> {
         }
         // Intentar tomar prestado del hermano derecho
         else if (childIdx < parent.children.size() - 1 &&
-                parent.children.get(childIdx + 1).keys.size() >= order / 2) {
+                parent.children.get(childIdx + 1).keys.size() >= t) {
             Node<K,V> rightSibling = parent.children.get(childIdx + 1);
             child.keys.add(parent.keys.get(childIdx));
             child.values.add(parent.values.get(childIdx));
@@ -225,6 +265,46 @@ public class BTree<K extends Comparable<K>, V> {
     }
 
 
+    /* ---------- BORRADO PEREZOSO ---------- */
+    /** Marca la clave como borrada sin reestructurar el árbol. */
+    public boolean remove(K key) {
+        Node<K,V> n = findNode(key);
+        if (n == null) return false;
+        int pos = Collections.binarySearch(n.keys, key);
+        if (n.values.get(pos) == null) return false;    // ya era lápida
+        n.values.set(pos, null);
+        size--;
+        tombstones++;
+        return true;
+    }
+
+    /** Reconstruye el árbol solo con las claves vivas y descarta las lápidas. */
+    public void compact() {
+        if (tombstones == 0) return;
+        List<K> keys = new ArrayList<>(size);
+        List<V> values = new ArrayList<>(size);
+        collectLive(root, keys, values);
+
+        root = new Node<>(true);
+        size = 0;
+        tombstones = 0;
+        for (int i = 0; i < keys.size(); i++) insert(keys.get(i), values.get(i));
+    }
+
+    private void collectLive(Node<K,V> node, List<K> keys, List<V> values) {
+        for (int i = 0; i < node.keys.size(); i++) {
+            if (!node.leaf) collectLive(node.children.get(i), keys, values);
+            if (node.values.get(i) != null) {
+                keys.add(node.keys.get(i));
+                values.add(node.values.get(i));
+            }
+        }
+        if (!node.leaf) collectLive(node.children.get(node.children.size() - 1), keys, values);
+    }
+
+    public int size() { return size; }
+    public int tombstoneCount() { return tombstones; }
+
 //    LO USAMOS PARA EL GRAFICO DEL GRAFO
     public List<K> keysInOrder() {
         List<K> keys = new ArrayList<>();
@@ -239,7 +319,7 @@ public class BTree<K extends Comparable<K>, V> {
             if (!node.leaf) {
                 keysInOrder(node.children.get(i), keys);
             }
-            keys.add(node.keys.get(i));
+            if (node.values.get(i) != null) keys.add(node.keys.get(i)); // se saltan las lápidas
         }
 
         if (!node.leaf) {
@@ -0,0 +1,79 @@
+package com.warehouse.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Caché LRU acotada y segura para hilos.
+ *  – Se apoya en un LinkedHashMap en orden de acceso.
+ *  – Al superar la capacidad expulsa la entrada usada hace más tiempo.
+ *  – Lleva estadísticas de aciertos, fallos y expulsiones.
+ */
+public class LruCache<K, V> {
+
+    private final int capacity;
+    private final Map<K, V> map;
+
+    private long hits, misses, evictions;
+
+    public LruCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacidad debe ser ≥ 1");
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /* ---------- lectura / escritura ---------- */
+    public synchronized V get(K key) {
+        V v = map.get(key);
+        if (v != null) hits++;
+        else misses++;
+        return v;
+    }
+
+    /** Los valores null no se guardan (un fallo se vuelve a calcular). */
+    public synchronized void put(K key, V value) {
+        if (value != null) map.put(key, value);
+    }
+
+    /* ---------- invalidación ---------- */
+    public synchronized void invalidate(K key) { map.remove(key); }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> condition) {
+        List<K> stale = new ArrayList<>();
+        map.forEach((k, v) -> { if (condition.test(k, v)) stale.add(k); });
+        stale.forEach(map::remove);
+    }
+
+    public synchronized void clear() { map.clear(); }
+
+    /* ---------- estadísticas ---------- */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, map.size(), capacity);
+    }
+
+    public synchronized void resetStats() { hits = misses = evictions = 0; }
+
+    /** Foto de las estadísticas de una caché. */
+    public record CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+        public String toString() {
+            return String.format("aciertos=%d fallos=%d expulsiones=%d tamaño=%d/%d (%.1f%%)",
+                    hits, misses, evictions, size, capacity, hitRate() * 100);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.warehouse.graph;
+
+/** Nuevo peso para la arista from → to (p. ej. una entrada del vector de congestión). */
+public record EdgeUpdate(int from, int to, double weight) {}
@@ -0,0 +1,26 @@
+package com.warehouse.graph;
+
+import java.util.List;
+
+/**
+ * Ruta calculada entre dos ubicaciones.
+ *  - nodes: IDs de los nodos en orden (origen ... destino)
+ *  - cost: suma de los pesos de las aristas recorridas
+ */
+public record Route(List<Integer> nodes, double cost) {
+
+    public Route {
+        nodes = List.copyOf(nodes);
+    }
+
+    public int from() { return nodes.get(0); }
+    public int to()   { return nodes.get(nodes.size() - 1); }
+
+    /** true si la ruta recorre la arista from → to. */
+    public boolean usesEdge(int fromId, int toId) {
+        for (int i = 0; i + 1 < nodes.size(); i++) {
+            if (nodes.get(i) == fromId && nodes.get(i + 1) == toId) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+package com.warehouse.graph;
+
+import java.util.*;
+
+/**
+ * Árbol de caminos mínimos mantenido de forma incremental (SSSP dinámico).
+ *  – Directo (reverse = false): caminos desde root hacia todos los nodos.
+ *  – Inverso (reverse = true): caminos desde todos los nodos hacia root.
+ *  – Tras un cambio de pesos solo se recalculan los subárboles afectados:
+ *    una arista más cara (o borrada) del árbol invalida el subárbol que cuelga de ella,
+ *    una arista más barata (o nueva) siembra una mejora; ambos se propagan con Dijkstra.
+ */
+public class ShortestPathTree {
+
+    /** Cambio ya aplicado en el grafo; worsened = la arista subió de peso o desapareció. */
+    record EdgeChange(int from, int to, boolean worsened) {}
+
+    private record Entry(int id, double d) implements Comparable<Entry> {
+        public int compareTo(Entry o) { return Double.compare(d, o.d); }
+    }
+
+    private final WarehouseGraph graph;
+    private final int root;
+    private final boolean reverse;
+
+    private final Map<Integer, Double> dist = new HashMap<>();
+    private final Map<Integer, Integer> parent = new HashMap<>();
+    private final Map<Integer, Set<Integer>> children = new HashMap<>();
+
+    ShortestPathTree(WarehouseGraph graph, int root, boolean reverse) {
+        this.graph = graph;
+        this.root = root;
+        this.reverse = reverse;
+        rebuild();
+    }
+
+    /* ---------- consultas ---------- */
+    public int getRoot() { return root; }
+    public boolean isReverse() { return reverse; }
+
+    /** Distancia entre root y el nodo (en el sentido del árbol); infinito si no hay camino. */
+    public double distance(int id) {
+        return dist.getOrDefault(id, Double.POSITIVE_INFINITY);
+    }
+
+    /** Ruta root → id (directo) o id → root (inverso); null si no hay camino. */
+    public Route path(int id) {
+        if (!dist.containsKey(id)) return null;
+        List<Integer> ids = new ArrayList<>();
+        for (Integer at = id; at != null; at = parent.get(at)) ids.add(at);
+        if (!reverse) Collections.reverse(ids);
+        return new Route(ids, dist.get(id));
+    }
+
+    /* ---------- construcción completa ---------- */
+    void rebuild() {
+        dist.clear();
+        parent.clear();
+        children.clear();
+        PriorityQueue<Entry> pq = new PriorityQueue<>();
+        dist.put(root, 0.0);
+        pq.add(new Entry(root, 0.0));
+        propagate(pq);
+    }
+
+    /* ---------- reparación incremental ---------- */
+    void repair(Collection<EdgeChange> changes) {
+        // 1) subárboles colgados de aristas del árbol que empeoraron
+        Set<Integer> affected = new HashSet<>();
+        for (EdgeChange c : changes) {
+            int a = reverse ? c.to() : c.from(), b = reverse ? c.from() : c.to();
+            if (c.worsened() && Objects.equals(parent.get(b), a)) collectSubtree(b, affected);
+        }
+
+        // 2) se desenganchan y quedan a distancia infinita
+        for (int x : affected) {
+            Integer p = parent.remove(x);
+            if (p != null && children.containsKey(p)) children.get(p).remove(x);
+            dist.remove(x);
+        }
+        for (int x : affected) children.remove(x);
+
+        // 3) cada nodo afectado toma el mejor predecesor fuera de la zona afectada
+        PriorityQueue<Entry> pq = new PriorityQueue<>();
+        for (int x : affected) {
+            WarehouseNode nx = graph.getNode(x);
+            for (WarehouseNode y : backward(nx)) {
+                Double dy = dist.get(y.getId());
+                if (dy != null) relax(y.getId(), x, dy + treeWeight(y, nx), pq);
+            }
+        }
+
+        // 4) aristas que bajaron de peso o aparecieron
+        for (EdgeChange c : changes) {
+            int a = reverse ? c.to() : c.from(), b = reverse ? c.from() : c.to();
+            WarehouseNode na = graph.getNode(a), nb = graph.getNode(b);
+            Double da = dist.get(a);
+            Double w = na == null || nb == null ? null : treeWeight(na, nb);
+            if (da != null && w != null) relax(a, b, da + w, pq);
+        }
+
+        propagate(pq);
+    }
+
+    private void collectSubtree(int start, Set<Integer> out) {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int x = stack.pop();
+            if (!out.add(x)) continue;
+            for (int c : children.getOrDefault(x, Set.of())) stack.push(c);
+        }
+    }
+
+    /* ---------- Dijkstra a partir de la cola sembrada ---------- */
+    private void propagate(PriorityQueue<Entry> pq) {
+        while (!pq.isEmpty()) {
+            Entry cur = pq.poll();
+            if (cur.d > distance(cur.id)) continue;
+            WarehouseNode n = graph.getNode(cur.id);
+            for (WarehouseNode v : forward(n)) {
+                relax(cur.id, v.getId(), cur.d + treeWeight(n, v), pq);
+            }
+        }
+    }
+
+    private void relax(int from, int to, double alt, PriorityQueue<Entry> pq) {
+        if (alt >= distance(to)) return;
+        dist.put(to, alt);
+        Integer old = parent.put(to, from);
+        if (old != null && children.containsKey(old)) children.get(old).remove(to);
+        children.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+        pq.add(new Entry(to, alt));
+    }
+
+    /* ---------- aristas en el sentido del árbol ---------- */
+    private Collection<WarehouseNode> forward(WarehouseNode n) {
+        return reverse ? n.getIncoming() : n.getEdges().keySet();
+    }
+    private Collection<WarehouseNode> backward(WarehouseNode n) {
+        return reverse ? n.getEdges().keySet() : n.getIncoming();
+    }
+    /** Peso de la arista del grafo que corresponde a a → b en el árbol; null si no existe. */
+    private Double treeWeight(WarehouseNode a, WarehouseNode b) {
+        return reverse ? b.getEdges().get(a) : a.getEdges().get(b);
+    }
+}
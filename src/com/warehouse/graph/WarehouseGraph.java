@@ -7,6 +7,10 @@ public class WarehouseGraph {
 
     private final Map<Integer, WarehouseNode> nodes = new HashMap<>();
 
+    // Árboles de caminos mínimos de orígenes/destinos calientes, reparados en cada cambio de aristas
+    private final Map<Integer, ShortestPathTree> sourceTrees = new HashMap<>();
+    private final Map<Integer, ShortestPathTree> targetTrees = new HashMap<>();
+
     /* ---------- nodos ---------- */
     public WarehouseNode addNode(int id, String label) {
         return nodes.computeIfAbsent(id, k -> new WarehouseNode(id, label));
@@ -19,27 +23,78 @@ public class WarehouseGraph {
         WarehouseNode from = nodes.get(fromId), to = nodes.get(toId);
         if (from == null || to == null)
             throw new IllegalArgumentException("Nodo(s) inexistente(s)");
+        Double old = from.getEdges().get(to);
         from.addEdge(to, w);
+        repairTrees(List.of(new ShortestPathTree.EdgeChange(fromId, toId, old != null && w > old)));
     }
     public void removeEdge(int fromId, int toId) {
         WarehouseNode from = nodes.get(fromId), to = nodes.get(toId);
-        if (from == null || to == null) return;
+        if (from == null || to == null || !from.getEdges().containsKey(to)) return;
         from.removeEdge(to);
+        repairTrees(List.of(new ShortestPathTree.EdgeChange(fromId, toId, true)));
     }
     public void updateEdge(int fromId, int toId, double w) {
-        WarehouseNode from = nodes.get(fromId), to = nodes.get(toId);
-        if (from == null || to == null)
-            throw new IllegalArgumentException("Nodos inexistentes");
-        from.updateEdgeWeight(to, w);
+        updateEdges(List.of(new EdgeUpdate(fromId, toId, w)));
+    }
+
+    /**
+     * Aplica varios pesos de una vez (p. ej. un vector de congestión) y repara
+     * los árboles de caminos mínimos una sola vez al final.
+     * Se valida todo antes de tocar nada: o se aplican todas o ninguna.
+     */
+    public void updateEdges(Collection<EdgeUpdate> updates) {
+        for (EdgeUpdate u : updates) {
+            WarehouseNode from = nodes.get(u.from()), to = nodes.get(u.to());
+            if (from == null || to == null)
+                throw new IllegalArgumentException("Nodos inexistentes");
+            if (!from.getEdges().containsKey(to))
+                throw new IllegalArgumentException("No existe arista");
+        }
+        List<ShortestPathTree.EdgeChange> changes = new ArrayList<>(updates.size());
+        for (EdgeUpdate u : updates) {
+            WarehouseNode from = nodes.get(u.from()), to = nodes.get(u.to());
+            double old = from.getEdges().get(to);
+            from.updateEdgeWeight(to, u.weight());
+            if (u.weight() != old) changes.add(new ShortestPathTree.EdgeChange(u.from(), u.to(), u.weight() > old));
+        }
+        repairTrees(changes);
+    }
+
+    /* ---------- árboles de caminos mínimos ---------- */
+    /** Mantiene un árbol de caminos desde el nodo (p. ej. RECEPCION). */
+    public ShortestPathTree trackSource(int id) {
+        if (!nodes.containsKey(id)) throw new IllegalArgumentException("Nodo inexistente");
+        return sourceTrees.computeIfAbsent(id, k -> new ShortestPathTree(this, id, false));
+    }
+    /** Mantiene un árbol de caminos hacia el nodo (p. ej. DESPACHO). */
+    public ShortestPathTree trackTarget(int id) {
+        if (!nodes.containsKey(id)) throw new IllegalArgumentException("Nodo inexistente");
+        return targetTrees.computeIfAbsent(id, k -> new ShortestPathTree(this, id, true));
+    }
+    public void untrack(int id) {
+        sourceTrees.remove(id);
+        targetTrees.remove(id);
+    }
+
+    private void repairTrees(List<ShortestPathTree.EdgeChange> changes) {
+        if (changes.isEmpty()) return;
+        sourceTrees.values().forEach(t -> t.repair(changes));
+        targetTrees.values().forEach(t -> t.repair(changes));
     }
 
     /* ---------- Dijkstra ---------- */ // Cola de prioridad(pesos)
-    public void printShortestPath(int fromId, int toId) {
+    /**
+     * Calcula la ruta más corta entre dos nodos.
+     * Devuelve null si algún ID no existe o si no hay camino.
+     */
+    public Route shortestPath(int fromId, int toId) {
+        if (!nodes.containsKey(fromId) || !nodes.containsKey(toId)) return null;
 
-        if (!nodes.containsKey(fromId) || !nodes.containsKey(toId)) {
-            System.out.println("Alguno de los IDs no existe.");
-            return;
-        }
+        // Orígenes/destinos con árbol mantenido: la ruta ya está calculada
+        ShortestPathTree tree = sourceTrees.get(fromId);
+        if (tree != null) return tree.path(toId);
+        tree = targetTrees.get(toId);
+        if (tree != null) return tree.path(fromId);
 
         /* --- estructuras auxiliares --- */
         Map<Integer, Double> dist = new HashMap<>();
@@ -71,34 +126,144 @@ public class WarehouseGraph {
         }
 
         /* --- reconstruir ruta --- */
-        if (!prev.containsKey(toId) && fromId != toId) {
-            System.out.println("No hay camino de " + fromId + " a " + toId);
-            return;
-        }
+        if (!prev.containsKey(toId) && fromId != toId) return null;
         List<Integer> route = new ArrayList<>();
         for (Integer at = toId; at != null; at = prev.get(at)) route.add(at);
         Collections.reverse(route);
+        return new Route(route, dist.get(toId));
+    }
 
-        /* --- imprimir --- */
-        System.out.print("Camino óptimo: ");
-        for (int i = 0; i < route.size(); i++) {
-            System.out.print(nodes.get(route.get(i)).getLabel());
-            if (i < route.size() - 1) System.out.print(" -> ");
+    public void printShortestPath(int fromId, int toId) {
+        if (!nodes.containsKey(fromId) || !nodes.containsKey(toId)) {
+            System.out.println("Alguno de los IDs no existe.");
+            return;
         }
-        System.out.println("   (distancia = " + dist.get(toId) + ")");
+        Route route = shortestPath(fromId, toId);
+        if (route == null) {
+            System.out.println("No hay camino de " + fromId + " a " + toId);
+            return;
+        }
+        printRoute("Camino óptimo", route);
     }
 
+    /* --- imprimir --- */
+    /** Imprime cualquier ruta (p. ej. una alternativa de kShortestPaths), sin llamarla óptima. */
+    public void printRoute(Route route) { printRoute("Ruta", route); }
 
+    private void printRoute(String title, Route route) {
+        List<Integer> ids = route.nodes();
+        System.out.print(title + ": ");
+        for (int i = 0; i < ids.size(); i++) {
+            System.out.print(nodes.get(ids.get(i)).getLabel());
+            if (i < ids.size() - 1) System.out.print(" -> ");
+        }
+        System.out.println("   (distancia = " + route.cost() + ")");
+    }
 
+    /* ---------- K rutas más cortas (Yen) ---------- */
+    /**
+     * Devuelve hasta k rutas sin ciclos de from a to, ordenadas por coste.
+     * El árbol inverso hacia el destino (el mantenido, si existe) se reutiliza en cada desvío:
+     *  – si el camino del árbol desde el nodo de desvío no pisa nada prohibido, ya es el óptimo;
+     *  – si no, sus distancias sirven de heurística exacta-en-el-grafo-completo para A*.
+     */
+    public List<Route> kShortestPaths(int fromId, int toId, int k) {
+        if (k < 1) throw new IllegalArgumentException("k debe ser ≥ 1");
+        List<Route> result = new ArrayList<>();
+        if (!nodes.containsKey(fromId) || !nodes.containsKey(toId)) return result;
+
+        ShortestPathTree toTarget = targetTrees.get(toId);
+        if (toTarget == null) toTarget = new ShortestPathTree(this, toId, true);
+
+        Route first = toTarget.path(fromId);
+        if (first == null) return result;
+        result.add(first);
+
+        PriorityQueue<Route> candidates = new PriorityQueue<>(Comparator.comparingDouble(Route::cost));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(first.nodes());
+
+        while (result.size() < k) {
+            List<Integer> last = result.get(result.size() - 1).nodes();
+            double rootCost = 0;
+
+            for (int i = 0; i < last.size() - 1; i++) {
+                int spur = last.get(i);
+                List<Integer> rootPath = last.subList(0, i + 1);
+
+                // aristas ya usadas por rutas aceptadas que comparten este mismo tramo inicial
+                Set<Integer> bannedNext = new HashSet<>();
+                for (Route r : result) {
+                    List<Integer> ids = r.nodes();
+                    if (ids.size() > i + 1 && ids.subList(0, i + 1).equals(rootPath)) bannedNext.add(ids.get(i + 1));
+                }
+                // el tramo inicial no se puede repetir (rutas sin ciclos)
+                Set<Integer> bannedNodes = new HashSet<>(last.subList(0, i));
+
+                Route spurPath = spurPath(spur, toId, bannedNodes, bannedNext, toTarget);
+                if (spurPath != null) {
+                    List<Integer> ids = new ArrayList<>(last.subList(0, i));
+                    ids.addAll(spurPath.nodes());
+                    if (seen.add(ids)) candidates.add(new Route(ids, rootCost + spurPath.cost()));
+                }
+                rootCost += weight(spur, last.get(i + 1));
+            }
 
+            if (candidates.isEmpty()) break;
+            result.add(candidates.poll());
+        }
+        return result;
+    }
 
+    /** Camino mínimo spur → to sin pasar por bannedNodes ni salir de spur hacia bannedNext. */
+    private Route spurPath(int spur, int toId, Set<Integer> bannedNodes, Set<Integer> bannedNext,
+                           ShortestPathTree toTarget) {
+        // Atajo: el camino del árbol es válido → es el mínimo
+        Route treePath = toTarget.path(spur);
+        if (treePath == null) return null;                       // ni en el grafo completo hay camino
+        List<Integer> ids = treePath.nodes();
+        if (ids.size() > 1 && !bannedNext.contains(ids.get(1)) && Collections.disjoint(ids, bannedNodes))
+            return treePath;
+
+        /* --- A* con h = distancia al destino en el grafo completo --- */
+        record Entry(int id, double g, double f) implements Comparable<Entry> {
+            public int compareTo(Entry o) { return Double.compare(f, o.f); }
+        }
+        Map<Integer, Double> dist = new HashMap<>();
+        Map<Integer, Integer> prev = new HashMap<>();
+        PriorityQueue<Entry> pq = new PriorityQueue<>();
+        dist.put(spur, 0.0);
+        pq.add(new Entry(spur, 0.0, toTarget.distance(spur)));
 
+        while (!pq.isEmpty()) {
+            Entry cur = pq.poll();
+            if (cur.g > dist.get(cur.id)) continue;
+            if (cur.id == toId) break;
 
+            for (var e : nodes.get(cur.id).getEdges().entrySet()) {
+                int vId = e.getKey().getId();
+                if (bannedNodes.contains(vId) || (cur.id == spur && bannedNext.contains(vId))) continue;
+                double h = toTarget.distance(vId);
+                if (h == Double.POSITIVE_INFINITY) continue;     // desde ahí no se llega
+                double alt = cur.g + e.getValue();
+                if (alt < dist.getOrDefault(vId, Double.POSITIVE_INFINITY)) {
+                    dist.put(vId, alt);
+                    prev.put(vId, cur.id);
+                    pq.add(new Entry(vId, alt, alt + h));
+                }
+            }
+        }
 
+        if (!dist.containsKey(toId)) return null;
+        List<Integer> route = new ArrayList<>();
+        for (Integer at = toId; at != null; at = prev.get(at)) route.add(at);
+        Collections.reverse(route);
+        return new Route(route, dist.get(toId));
+    }
 
-
-
-
+    private double weight(int fromId, int toId) {
+        return nodes.get(fromId).getEdges().get(nodes.get(toId));
+    }
 
     /* ---------- BFS (Breadth-First Search) ---------- */
     /**
@@ -3,8 +3,12 @@ package com.warehouse.graph;
 import com.warehouse.btree.BTree;
 import com.warehouse.model.Product;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class WarehouseNode {
 
@@ -13,6 +17,7 @@ public class WarehouseNode {
     private int id;
     private String label;
     private Map<WarehouseNode,Double> edges = new HashMap<>(); //
+    private Set<WarehouseNode> incoming = new HashSet<>();     // nodos con arista hacia este (para árboles inversos)
 
     private BTree<String, Product> index = new BTree<>(ORDER); // El arbol que alacena los productos en esta ubicacion(Nodo).
 
@@ -22,13 +27,14 @@ public class WarehouseNode {
     }
 
     /* ---------- aristas ---------- */
-    public void addEdge(WarehouseNode t, double w){edges.put(t,w);}
-    public void removeEdge(WarehouseNode t){edges.remove(t);}
+    public void addEdge(WarehouseNode t, double w){edges.put(t,w); t.incoming.add(this);}
+    public void removeEdge(WarehouseNode t){edges.remove(t); t.incoming.remove(this);}
     public void updateEdgeWeight(WarehouseNode t,double w){
         if(!edges.containsKey(t)) throw new IllegalArgumentException("No existe arista");
         edges.put(t,w);
     }
     public Map<WarehouseNode,Double> getEdges(){return edges;}
+    public Set<WarehouseNode> getIncoming(){return incoming;}
 
     /* ---------- inventario ---------- */
     public void putProduct(Product p){ index.insert(p.getSku(), p); } // inserta y actualiza a la vez
@@ -54,7 +60,28 @@ public class WarehouseNode {
     }
 
 
-    public void deleteProduct(String sku){ /* delete opcional */ }
+    /* ---------- borrado ---------- */
+    /** Borrado perezoso: deja una lápida en el árbol B, se limpia con compact(). */
+    public boolean deleteProduct(String sku){ return index.remove(sku); }
+
+    /** Borra (con lápida) los productos sin existencias; devuelve sus SKU. */
+    public List<String> deleteEmptyProducts() {
+        List<String> removed = new ArrayList<>();
+        for (String sku : index.keysInOrder()) {
+            Product p = index.search(sku);
+            if (p != null && p.getQuantity() == 0 && index.remove(sku)) removed.add(sku);
+        }
+        return removed;
+    }
+
+    /** true cuando las lápidas superan el umbral respecto a los productos vivos. */
+    public boolean needsCompaction(double ratio) {
+        int dead = index.tombstoneCount();
+        return dead > 0 && dead >= index.size() * ratio;
+    }
+    public void compact(){ index.compact(); }
+    public int getProductCount(){ return index.size(); }
+    public int getTombstoneCount(){ return index.tombstoneCount(); }
 
 // SE USA PARA MOSTRAR EL GRAFO EN IMAGEN
     public String getFormattedProducts() {